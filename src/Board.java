@@ -1,4 +1,5 @@
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.awt.*;
 import java.awt.geom.Rectangle2D;
@@ -23,6 +24,7 @@ import java.util.stream.Stream;
 public class Board<E> implements Iterable<Tile<E>> {
     private final @NotNull Tile<E>[][] tiles;
     private final int boardSize;
+    private @Nullable List<Tile<E>> @Nullable [] @Nullable [] neighborLists;
 
     public Board(@NotNull Tile<E>[] @NotNull [] tiles) {
         this.tiles = tiles;
@@ -68,6 +70,26 @@ public class Board<E> implements Iterable<Tile<E>> {
         return neighbors.stream();
     }
 
+    /**
+     * Returns the neighbors of the tile at the given row and column as a list.
+     * The list is built the first time it is asked for and then kept, so a search
+     * that comes back to a tile many times (or several searches of the same board)
+     * doesn't build it again. Tiles that are never asked for cost nothing.
+     */
+    @SuppressWarnings("unchecked")
+    public @NotNull List<Tile<E>> getNeighborList(int r, int c) {
+        if (neighborLists == null) {
+            neighborLists = new List[boardSize][];
+        }
+        if (neighborLists[r] == null) {
+            neighborLists[r] = new List[boardSize];
+        }
+        if (neighborLists[r][c] == null) {
+            neighborLists[r][c] = getNeighbors(r, c).toList();
+        }
+        return neighborLists[r][c];
+    }
+
     public @NotNull Stream<Tile<E>> getFreshNeighbors(@NotNull Tile<E> tile) {
         return getFreshNeighbors(tile.getRow(), tile.getCol());
     }
@@ -0,0 +1,130 @@
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.HashMap;
+import java.util.Objects;
+import java.util.function.BooleanSupplier;
+
+/**
+ * The class summarizes which letters a board has and which letters sit next
+ * to each other. It is used to prune a dictionary before solving
+ * (see PrunedWordCollection).
+ * <p>
+ * A word can only be formed on the board if:
+ * <ul>
+ *     <li> it does not use any letter more times than the board has tiles with
+ *     that letter. For example, on a board with a single 'e', the word "tree"
+ *     can never be formed.
+ *     <li> every pair of consecutive letters appears on two neighboring tiles
+ *     somewhere on the board. For example, "cat" needs a 'c' next to an 'a'
+ *     and an 'a' next to a 't'.
+ * </ul>
+ * Once a prefix fails one of these tests, every longer word starting with it
+ * fails too, so a trie can skip a whole subtree at once.
+ * <p>
+ * Each distinct letter on the board gets an index, so the counts and the pairs
+ * of neighbors can be kept in arrays. The words in the dictionary are all lower
+ * case, so the letters on the board are converted to lower case.
+ */
+public class BoardLetters {
+    private final @NotNull HashMap<Character, Integer> index;
+    private final int @NotNull [] counts;
+    private final boolean @NotNull [] @NotNull [] adjacent;
+
+    private BoardLetters(@NotNull HashMap<Character, Integer> index, int @NotNull [] counts,
+                         boolean @NotNull [] @NotNull [] adjacent) {
+        this.index = index;
+        this.counts = counts;
+        this.adjacent = adjacent;
+    }
+
+    /**
+     * Numbers the letters of the board, counts them and records every pair
+     * of neighbors.
+     */
+    public static @NotNull BoardLetters of(@NotNull Board<Character> board) {
+        return Objects.requireNonNull(of(board, () -> false));
+    }
+
+    /**
+     * Like of(board), but gives up and returns null as soon as outOfTime returns
+     * true. This takes time proportional to the number of tiles, so outOfTime is
+     * asked at the start of every row.
+     */
+    public static @Nullable BoardLetters of(@NotNull Board<Character> board, @NotNull BooleanSupplier outOfTime) {
+        @NotNull HashMap<Character, Integer> index = new HashMap<>();
+        for (@NotNull Tile<Character> tile : board) {
+            if (tile.getCol() == 0 && outOfTime.getAsBoolean()) {
+                return null;
+            }
+            index.putIfAbsent(letterOf(tile), index.size());
+        }
+
+        int @NotNull [] counts = new int[index.size()];
+        boolean @NotNull [] @NotNull [] adjacent = new boolean[index.size()][index.size()];
+        for (@NotNull Tile<Character> tile : board) {
+            if (tile.getCol() == 0 && outOfTime.getAsBoolean()) {
+                return null;
+            }
+            int i = index.get(letterOf(tile));
+            counts[i]++;
+            for (@NotNull Tile<Character> neighbor : board.getNeighborList(tile.getRow(), tile.getCol())) {
+                adjacent[i][index.get(letterOf(neighbor))] = true;
+            }
+        }
+        return new BoardLetters(index, counts, adjacent);
+    }
+
+    private static char letterOf(@NotNull Tile<Character> tile) {
+        return Character.toLowerCase(tile.toString().charAt(0));
+    }
+
+    /**
+     * Returns the index of the letter, or -1 if the letter is not on the board.
+     */
+    int indexOf(char c) {
+        return index.getOrDefault(c, -1);
+    }
+
+    /**
+     * Returns a copy of the letter counts by index, for a walk that uses up letters.
+     */
+    int @NotNull [] counts() {
+        return counts.clone();
+    }
+
+    /**
+     * Returns true if some tile with the letter at index i is next to a tile
+     * with the letter at index j.
+     */
+    boolean adjacent(int i, int j) {
+        return adjacent[i][j];
+    }
+
+    /**
+     * Returns true if the word has more than two letters and passes both tests.
+     * This is for collections that test one word at a time; a trie tests the
+     * same conditions one letter at a time as it walks down.
+     */
+    boolean feasible(@NotNull String w) {
+        return w.length() > 2 && lettersLeft(w) != null;
+    }
+
+    /**
+     * Returns the letter counts left after spelling the string, or null if the
+     * string fails one of the tests.
+     */
+    int @Nullable [] lettersLeft(@NotNull String s) {
+        int @NotNull [] left = counts();
+        int last = -1;
+        for (int i = 0; i < s.length(); i++) {
+            int k = indexOf(s.charAt(i));
+            if (k < 0 || left[k] == 0 || (last >= 0 && !adjacent(last, k))) {
+                return null;
+            }
+            left[k]--;
+            last = k;
+        }
+        return left;
+    }
+}
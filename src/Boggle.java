@@ -1,19 +1,36 @@
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import javax.swing.*;
 import java.awt.*;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Random;
 
 /*
  * The class represents a Boggle game. It maintains a board of tiles and a
  * dictionary of legal words. There are two implementations of dictionaries:
  * either as a list of words or as a trie data structure.
+ * <p>
+ * Before solving, the dictionary is pruned to the words that could possibly be
+ * formed on this board (see PrunedWordCollection), so the search only follows
+ * prefixes of such words.
+ * <p>
+ * The solver can be given limits on time, word length and the number of
+ * nodes explored (see SolveLimits). It then returns the words found so far and
+ * reports whether the search finished.
  */
 public class Boggle {
     private final @NotNull Board<Character> board;
     private final @NotNull WordCollection dict;
     private final @NotNull HashSet<String> foundWords;
+    private @Nullable PrunedWordCollection prunedDict;
+    private boolean pruning = true;
+    private boolean complete;
+    private long nodesVisited;
 
     /**
      * Constructs an instance of the game with the given board and dictionary.
@@ -21,7 +38,7 @@ public class Boggle {
     public Boggle(@NotNull Board<Character> board, @NotNull WordCollection dict) {
         this.board = board;
         this.dict = dict;
-        this.foundWords = new HashSet<>();
+        this.foundWords = new LinkedHashSet<>();
     }
 
     /**
@@ -38,7 +55,7 @@ public class Boggle {
         }
         this.board = new Board<>(tiles);
         this.dict = dict;
-        this.foundWords = new HashSet<>();
+        this.foundWords = new LinkedHashSet<>();
     }
 
     /**
@@ -56,65 +73,334 @@ public class Boggle {
         }
         this.board = new Board<>(tiles);
         this.dict = dict;
-        this.foundWords = new HashSet<>();
+        this.foundWords = new LinkedHashSet<>();
     }
 
     /**
-     * The method takes a current position on the board a string representing a
-     * prefix of a word that has been found so far. The character at the current
-     * position is added to the prefix to form a new string. If that string is a
-     * legal word in the dictionary (and is longer than two characters),
-     * it is added to the set of found words. Then we check if the string is a
-     * prefix of any word in the dictionary. If it is, we recursively call the
-     * method on all the neighbors of the current position.
+     * A frame of the explicit stack used by Search: the tile that was just added,
+     * the word spelled so far, the neighbors still to try and the index of the
+     * next one. There is one frame per depth and it is reused for every word of
+     * that length.
+     */
+    private static class Frame {
+        private Tile<Character> tile;
+        private String word;
+        private List<Tile<Character>> neighbors;
+        private int next;
+    }
+
+    /**
+     * The state of one call of findWords: the limits, the dictionary, when the
+     * search started and the stack of frames. Setting it up costs nothing per
+     * tile: the stack grows with the length of the longest path, and the
+     * (lower case) letter and the neighbors of a tile are computed the first time
+     * the search reaches it.
+     * <p>
+     * The budget is checked before a tile is added to the word. The node count is
+     * cheap to check, but reading the clock is not, so it is only read every
+     * CLOCK_INTERVAL nodes. Limits that are not set are not checked at all.
      * <p>
-     * Two important notes:
-     * <ul>
-     *     <li> The words in the dictionary are all lower case, so we need to convert
-     *     the string to lower case before checking if it is a legal word or a prefix.
-     *     <li> Since the current tile is a neighbor of each of its neighbors, we need to
-     *      mark the current tile as visited before calling the method recursively on
-     *      its neighbors to avoid infinite loops. After the recursive call,
-     *      we reset the tile to its original state.
-     * </ul>
+     * For iterative deepening, a pass records every path it cuts off at the length
+     * limit that could be extended (the frontier). The next pass continues from
+     * those paths instead of starting over from every tile, so the shorter paths
+     * are not searched again.
      */
-    public void findWordsFromPos(@NotNull Tile<Character> tile, @NotNull String s) {
+    private class Search {
+        private static final int CLOCK_INTERVAL = 16;
+
+        private final @NotNull SolveLimits limits;
+        private final @NotNull WordCollection words;
+        private final long start;
+        private final boolean timed, counted;
+        private @NotNull Frame @NotNull [] frames;
+        private final @Nullable String @NotNull [] @Nullable [] letters;
+        private @NotNull ArrayList<List<Tile<Character>>> frontier;
+
+        Search(@NotNull SolveLimits limits, @NotNull WordCollection words, long start) {
+            this.limits = limits;
+            this.words = words;
+            this.start = start;
+            this.timed = limits.getTimeBudgetNanos() != Long.MAX_VALUE;
+            this.counted = limits.getMaxNodes() != Long.MAX_VALUE;
+            this.frames = new Frame[0];
+            this.letters = new String[board.getBoardSize()][];
+            this.frontier = new ArrayList<>();
+        }
+
+        /**
+         * Returns the frame at the given depth, growing the stack if needed.
+         */
+        private @NotNull Frame frame(int depth) {
+            if (depth >= frames.length) {
+                int length = frames.length;
+                frames = Arrays.copyOf(frames, Math.max(16, 2 * length));
+                for (int i = length; i < frames.length; i++) frames[i] = new Frame();
+            }
+            return frames[depth];
+        }
+
+        /**
+         * Returns the letter of the tile in lower case, since the words in the
+         * dictionary are all lower case.
+         */
+        private @NotNull String letterOf(@NotNull Tile<Character> tile) {
+            if (letters[tile.getRow()] == null) {
+                letters[tile.getRow()] = new String[board.getBoardSize()];
+            }
+            String letter = letters[tile.getRow()][tile.getCol()];
+            if (letter == null) {
+                letter = tile.toString().toLowerCase();
+                letters[tile.getRow()][tile.getCol()] = letter;
+            }
+            return letter;
+        }
+
+        private boolean outOfBudget() {
+            if (counted && nodesVisited >= limits.getMaxNodes()) {
+                return true;
+            }
+            return timed && nodesVisited % CLOCK_INTERVAL == 0
+                    && System.nanoTime() - start >= limits.getTimeBudgetNanos();
+        }
 
-        String curr = s + tile;
-        String lowercaseCurr = curr.toLowerCase();
-        boolean wasFresh = tile.isFresh();
-        tile.setVisited();
+        /**
+         * Returns true if the last pass cut off a path that could be extended.
+         */
+        boolean cut() {
+            return !frontier.isEmpty();
+        }
 
-        if (lowercaseCurr.length() > 2 && dict.contains(lowercaseCurr)) {
-            foundWords.add(lowercaseCurr);
+        /**
+         * Searches the board from every tile, exploring strings of at most
+         * maxLength letters, and returns false if the budget ran out.
+         */
+        boolean from(int maxLength) {
+            @NotNull ArrayList<List<Tile<Character>>> cutOff = new ArrayList<>();
+            for (@NotNull Tile<Character> root : board) {
+                if (maxLength == 0) {
+                    break;
+                }
+                if (outOfBudget()) {
+                    return false;
+                }
+                visit(0, root, "", maxLength, cutOff);
+                if (!run(0, maxLength, cutOff)) {
+                    return false;
+                }
+            }
+            frontier = cutOff;
+            return true;
         }
 
-        if (dict.possiblePrefix(lowercaseCurr)) {
-            for (@NotNull Tile<Character> neighbor : board.getNeighbors(tile.getRow(), tile.getCol()).toList()) {
-                if (neighbor.isFresh()) {
-                    findWordsFromPos(neighbor, curr);
+        /**
+         * Continues the search from every path of the frontier, exploring strings
+         * of at most maxLength letters, and returns false if the budget ran out.
+         * The tiles of the path are marked as visited again and put back on the
+         * stack as if the search had just reached the end of the path.
+         */
+        boolean deepen(int maxLength) {
+            @NotNull ArrayList<List<Tile<Character>>> cutOff = new ArrayList<>();
+            for (@NotNull List<Tile<Character>> path : frontier) {
+                @NotNull StringBuilder word = new StringBuilder();
+                for (int i = 0; i < path.size(); i++) {
+                    @NotNull Tile<Character> tile = path.get(i);
+                    tile.setVisited();
+                    word.append(letterOf(tile));
+
+                    @NotNull Frame frame = frame(i);
+                    frame.tile = tile;
+                    frame.word = word.toString();
+                    frame.neighbors = List.of();
+                    frame.next = 0;
+                }
+                @NotNull Tile<Character> last = path.get(path.size() - 1);
+                frame(path.size() - 1).neighbors = board.getNeighborList(last.getRow(), last.getCol());
+
+                if (!run(path.size() - 1, maxLength, cutOff)) {
+                    return false;
                 }
             }
+            frontier = cutOff;
+            return true;
         }
 
-        if (wasFresh) {
-            tile.reset();
+        /**
+         * Runs the depth-first search until the stack, whose top frame is at index
+         * top, is empty. Instead of recursion, the search keeps an explicit stack
+         * of frames, so a long path cannot overflow the call stack. The top frame
+         * either adds its next fresh neighbor to the word or, when it has no
+         * neighbors left, is popped and its tile is reset. Since the current tile
+         * is a neighbor of each of its neighbors, it has to stay marked as visited
+         * while it is on the stack to avoid going around in circles.
+         * <p>
+         * If the budget runs out, every tile on the stack is reset (so the board
+         * can be searched again) and the method returns false.
+         */
+        private boolean run(int top, int maxLength, @NotNull ArrayList<List<Tile<Character>>> cutOff) {
+            while (top >= 0) {
+                @NotNull Frame frame = frame(top);
+                if (frame.next < frame.neighbors.size()) {
+                    @NotNull Tile<Character> neighbor = frame.neighbors.get(frame.next++);
+                    if (neighbor.isFresh()) {
+                        if (outOfBudget()) {
+                            for (int i = top; i >= 0; i--) frames[i].tile.reset();
+                            return false;
+                        }
+                        visit(++top, neighbor, frame.word, maxLength, cutOff);
+                    }
+                } else {
+                    frame.tile.reset();
+                    top--;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Adds the tile to the word, marks it as visited and fills in the frame at
+         * the given depth. If the new string is a legal word in the dictionary (and
+         * is longer than two characters), it is added to the set of found words.
+         * The words in the dictionary are all lower case, so the letters are too.
+         * <p>
+         * The neighbors of the tile are only tried if the new string is a possible
+         * prefix and is shorter than maxLength. If it has reached maxLength and
+         * some fresh neighbor extends it to another possible prefix, the path is
+         * added to cutOff for the next pass of iterative deepening.
+         */
+        private void visit(int depth, @NotNull Tile<Character> tile, @NotNull String s, int maxLength,
+                           @NotNull ArrayList<List<Tile<Character>>> cutOff) {
+            @NotNull String curr = s + letterOf(tile);
+            tile.setVisited();
+            nodesVisited++;
+
+            if (curr.length() > 2 && words.contains(curr)) {
+                foundWords.add(curr);
+            }
+
+            @NotNull Frame frame = frame(depth);
+            frame.tile = tile;
+            frame.word = curr;
+            frame.neighbors = List.of();
+            frame.next = 0;
+
+            if (words.possiblePrefix(curr)) {
+                @NotNull List<Tile<Character>> next = board.getNeighborList(tile.getRow(), tile.getCol());
+                if (curr.length() < maxLength) {
+                    frame.neighbors = next;
+                } else if (limits.isIterativeDeepening() && curr.length() < limits.getMaxWordLength()) {
+                    for (@NotNull Tile<Character> neighbor : next) {
+                        if (neighbor.isFresh() && words.possiblePrefix(curr + letterOf(neighbor))) {
+                            @NotNull ArrayList<Tile<Character>> path = new ArrayList<>(depth + 1);
+                            for (int i = 0; i <= depth; i++) path.add(frames[i].tile);
+                            cutOff.add(path);
+                            break;
+                        }
+                    }
+                }
+            }
         }
     }
 
     /**
-     * The method finds all the words on the board by calling the findWordsFromPos
-     * method on each tile on the board.
+     * The method finds all the words on the board. Unless pruning has been
+     * turned off, the dictionary is pruned for this board first (only once,
+     * the board does not change).
      */
     public void findWords() {
+        findWords(SolveLimits.unbounded());
+    }
+
+    /**
+     * The method finds the words on the board within the given limits and returns
+     * true if the search finished, i.e. it did not run out of time or nodes.
+     * The words found so far are available from getFoundWords either way.
+     * The clock starts before the dictionary is pruned, so pruning counts
+     * against the time budget (see searchDictionary).
+     * <p>
+     * With iterative deepening, the board is searched with a length limit of
+     * three letters, then four, and so on until a pass cuts off no prefix that
+     * could be extended, the maximum word length is reached, or the budget runs
+     * out. Each pass continues from the paths the previous one cut off. The time
+     * and node budgets are shared by all the passes.
+     */
+    public boolean findWords(@NotNull SolveLimits limits) {
+        long start = System.nanoTime();
         foundWords.clear();
-        for (@NotNull Tile<Character> tile : board) findWordsFromPos(tile, "");
+        nodesVisited = 0;
+        @NotNull Search search = new Search(limits, searchDictionary(limits, start), start);
+
+        int maxLength = limits.getMaxWordLength();
+        int depth = limits.isIterativeDeepening() ? Math.min(3, maxLength) : maxLength;
+        complete = search.from(depth);
+        while (complete && search.cut() && depth < maxLength) {
+            depth++;
+            complete = search.deepen(depth);
+        }
+        return complete;
     }
 
+    /**
+     * Returns the dictionary for a search that started at the given time. Unless
+     * pruning is off, this is the pruned view, which is built the first time.
+     * Building it takes time proportional to the number of tiles, so under a time
+     * budget it gets at most half of the budget. If that is not enough, this
+     * search uses the whole dictionary instead (the found words are the same)
+     * and the view is not kept.
+     */
+    private @NotNull WordCollection searchDictionary(@NotNull SolveLimits limits, long start) {
+        if (!pruning) {
+            return dict;
+        }
+        if (prunedDict == null) {
+            long budget = limits.getTimeBudgetNanos();
+            @Nullable BoardLetters letters = budget == Long.MAX_VALUE
+                    ? BoardLetters.of(board)
+                    : BoardLetters.of(board, () -> System.nanoTime() - start >= budget / 2);
+            if (letters == null) {
+                return dict;
+            }
+            prunedDict = new PrunedWordCollection(dict, letters);
+        }
+        return prunedDict;
+    }
+
+    /**
+     * Builds the view of the dictionary restricted to the words that could be
+     * formed on this board, unless it has already been built, and returns it.
+     */
+    public @NotNull PrunedWordCollection pruneDictionary() {
+        if (prunedDict == null) {
+            prunedDict = new PrunedWordCollection(board, dict);
+        }
+        return prunedDict;
+    }
+
+    /**
+     * Turns pruning of the dictionary before solving on or off. The found words
+     * are the same either way; this is mostly useful to compare the two.
+     */
+    public void setPruning(boolean pruning) {
+        this.pruning = pruning;
+    }
+
+    /**
+     * Returns the words found by the last search, in the order they were found.
+     */
     public @NotNull HashSet<String> getFoundWords() {
         return foundWords;
     }
 
+    /**
+     * Returns true if the last call of findWords finished within its limits.
+     */
+    public boolean isComplete() {
+        return complete;
+    }
+
+    public long getNodesVisited() {
+        return nodesVisited;
+    }
+
     public String toString() {
         return board.toString();
     }
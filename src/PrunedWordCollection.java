@@ -0,0 +1,76 @@
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * The class represents a view of a dictionary that only keeps the words that
+ * could possibly be found on a given board. It is built once before solving so
+ * that the search never explores prefixes that cannot lead to a word.
+ * <p>
+ * The words are tested against the letters of the board (see BoardLetters).
+ * The tests are necessary conditions, so every word that can be found on the
+ * board is kept and the set of found words is the same as with the full
+ * dictionary. Words with fewer than three letters are dropped as well since
+ * they are never reported; as prefixes they are still covered by the longer
+ * words that are kept.
+ * <p>
+ * How the words are kept depends on the dictionary (see the restrictTo method
+ * of WordCollection): a word list is copied to a shorter list, since every
+ * lookup scans the whole list, while a trie is not copied but answers through
+ * the tests, since on a large board almost every word passes them.
+ */
+public class PrunedWordCollection implements WordCollection {
+    private final @NotNull WordCollection dict;
+    private final @NotNull WordCollection kept;
+
+    /**
+     * Constructs the view of the given dictionary for the given board.
+     */
+    public PrunedWordCollection(@NotNull Board<Character> board, @NotNull WordCollection dict) {
+        this(dict, BoardLetters.of(board));
+    }
+
+    /**
+     * Constructs the view of the given dictionary for a board whose letters
+     * have already been summarized.
+     */
+    public PrunedWordCollection(@NotNull WordCollection dict, @NotNull BoardLetters letters) {
+        this.dict = dict;
+        this.kept = dict.restrictTo(letters);
+    }
+
+    /**
+     * Returns the number of words kept. For a trie this counts the words that
+     * pass the tests the first time it is called, which walks nearly the whole
+     * trie on a large board, so it is meant for reporting rather than solving.
+     */
+    public int getKeptCount() {
+        return kept.size();
+    }
+
+    public int getPrunedCount() {
+        return dict.size() - kept.size();
+    }
+
+    public boolean contains(@NotNull String w) {
+        return kept.contains(w);
+    }
+
+    public boolean possiblePrefix(@NotNull String w) {
+        return kept.possiblePrefix(w);
+    }
+
+    public int size() {
+        return kept.size();
+    }
+
+    /**
+     * A view belongs to one board, so restricting it to another board starts
+     * again from the whole dictionary.
+     */
+    public @NotNull WordCollection restrictTo(@NotNull BoardLetters letters) {
+        return dict.restrictTo(letters);
+    }
+
+    public String toString() {
+        return String.format("kept %d words, pruned %d", getKeptCount(), getPrunedCount());
+    }
+}
@@ -0,0 +1,124 @@
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The class represents the limits of a single solve of a Boggle board
+ * (see Boggle.findWords). There are three budgets:
+ * <ul>
+ *     <li> a time budget in milliseconds, after which the search stops;
+ *     <li> a maximum word length, longer strings are never explored;
+ *     <li> a maximum number of nodes, i.e. the number of times a tile is
+ *     added to the string being built.
+ * </ul>
+ * If the time or node budget runs out, the words found so far are kept and
+ * the solve is reported as incomplete. The maximum word length is a
+ * restriction on the answer rather than a budget: a search that explores every
+ * string up to that length is complete.
+ * <p>
+ * With iterative deepening, the board is searched in passes with a growing
+ * length limit, starting at three letters; each pass continues from the paths
+ * the previous one cut off. Short words are therefore found first, and a search
+ * that runs out of time still returns all the short words instead of a few long
+ * words from the first tiles.
+ */
+public class SolveLimits {
+    private final long timeBudgetMillis;
+    private final int maxWordLength;
+    private final long maxNodes;
+    private final boolean iterativeDeepening;
+
+    private SolveLimits(long timeBudgetMillis, int maxWordLength, long maxNodes, boolean iterativeDeepening) {
+        if (timeBudgetMillis < 0 || maxWordLength < 0 || maxNodes < 0) {
+            throw new IllegalArgumentException("Solve limits must not be negative");
+        }
+        this.timeBudgetMillis = timeBudgetMillis;
+        this.maxWordLength = maxWordLength;
+        this.maxNodes = maxNodes;
+        this.iterativeDeepening = iterativeDeepening;
+    }
+
+    /**
+     * Returns limits that never stop the search.
+     */
+    public static @NotNull SolveLimits unbounded() {
+        return new SolveLimits(Long.MAX_VALUE, Integer.MAX_VALUE, Long.MAX_VALUE, false);
+    }
+
+    /**
+     * Returns limits with only a time budget, searched with iterative deepening.
+     */
+    public static @NotNull SolveLimits deadline(long timeBudgetMillis) {
+        return unbounded().withTimeBudget(timeBudgetMillis).withIterativeDeepening(true);
+    }
+
+    /**
+     * Returns limits with only a node budget.
+     */
+    public static @NotNull SolveLimits nodes(long maxNodes) {
+        return unbounded().withMaxNodes(maxNodes);
+    }
+
+    /**
+     * Returns limits with only a maximum word length.
+     */
+    public static @NotNull SolveLimits maxLength(int maxWordLength) {
+        return unbounded().withMaxWordLength(maxWordLength);
+    }
+
+    /**
+     * Returns a copy of these limits with the given time budget.
+     */
+    public @NotNull SolveLimits withTimeBudget(long timeBudgetMillis) {
+        return new SolveLimits(timeBudgetMillis, maxWordLength, maxNodes, iterativeDeepening);
+    }
+
+    /**
+     * Returns a copy of these limits with the given maximum word length.
+     */
+    public @NotNull SolveLimits withMaxWordLength(int maxWordLength) {
+        return new SolveLimits(timeBudgetMillis, maxWordLength, maxNodes, iterativeDeepening);
+    }
+
+    /**
+     * Returns a copy of these limits with the given node budget.
+     */
+    public @NotNull SolveLimits withMaxNodes(long maxNodes) {
+        return new SolveLimits(timeBudgetMillis, maxWordLength, maxNodes, iterativeDeepening);
+    }
+
+    /**
+     * Returns a copy of these limits that searches with or without iterative deepening.
+     */
+    public @NotNull SolveLimits withIterativeDeepening(boolean iterativeDeepening) {
+        return new SolveLimits(timeBudgetMillis, maxWordLength, maxNodes, iterativeDeepening);
+    }
+
+    public long getTimeBudgetMillis() {
+        return timeBudgetMillis;
+    }
+
+    /**
+     * Returns the time budget in nanoseconds (Long.MAX_VALUE if it would overflow).
+     */
+    long getTimeBudgetNanos() {
+        return TimeUnit.MILLISECONDS.toNanos(timeBudgetMillis);
+    }
+
+    public int getMaxWordLength() {
+        return maxWordLength;
+    }
+
+    public long getMaxNodes() {
+        return maxNodes;
+    }
+
+    public boolean isIterativeDeepening() {
+        return iterativeDeepening;
+    }
+
+    public String toString() {
+        return String.format("%d ms, %d letters, %d nodes%s", timeBudgetMillis, maxWordLength, maxNodes,
+                iterativeDeepening ? ", iterative deepening" : "");
+    }
+}
@@ -1,8 +1,11 @@
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.HashMap;
 import java.util.Hashtable;
+import java.util.Map;
 import java.util.Scanner;
 
 /**
@@ -45,10 +48,14 @@ import java.util.Scanner;
  * then "cat" is both a word and a prefix. The boolean instance variable endsHere
  * would be set to true for the node representing the last character of "cat" but
  * would be false for the nodes representing the 'c' and 'a' characters.
+ * <p>
+ * Each node also keeps the number of words stored below it (including itself),
+ * so the size of the collection is known without walking the trie.
  *
  */
 public class Trie implements WordCollection {
     private boolean endsHere;
+    private int size;
     private final @NotNull Hashtable<Character,Trie> children;
 
     /**
@@ -56,6 +63,7 @@ public class Trie implements WordCollection {
      */
     Trie () {
         this.endsHere = false;
+        this.size = 0;
         this.children = new Hashtable<>();
     }
 
@@ -90,12 +98,17 @@ public class Trie implements WordCollection {
      * is set to true. Otherwise, the first character of the word is used to find
      * the child node. If the child node does not exist, it is created with
      * an empty trie. The method is then called recursively to insert
-     * the rest of the word.
+     * the rest of the word. It returns true if the word was not already in the
+     * trie, in which case the size of every node on the path goes up by one.
      */
-    void insert (@NotNull String s) {
+    boolean insert (@NotNull String s) {
         if (s.isEmpty()) {
+            if (this.endsHere) {
+                return false;
+            }
             this.endsHere = true;
-            return;
+            this.size++;
+            return true;
         }
 
         char firstChar = s.charAt(0);
@@ -106,7 +119,11 @@ public class Trie implements WordCollection {
             children.put(firstChar, child);
         }
 
-        child.insert(s.substring(1));
+        if (!child.insert(s.substring(1))) {
+            return false;
+        }
+        this.size++;
+        return true;
     }
 
     /**
@@ -141,6 +158,164 @@ public class Trie implements WordCollection {
         return search(s,false);
     }
 
+    public int size () {
+        return size;
+    }
+
+    /**
+     * Returns the node reached by following the characters of s from this node,
+     * or null if there is no such node.
+     */
+    private @Nullable Trie find (@NotNull String s) {
+        Trie node = this;
+        for (int i = 0; i < s.length() && node != null; i++) {
+            node = node.children.get(s.charAt(i));
+        }
+        return node;
+    }
+
+    /**
+     * Returns a view of the trie with only the words that could be formed on the
+     * board. Nothing is copied (see Restricted).
+     */
+    public @NotNull WordCollection restrictTo (@NotNull BoardLetters letters) {
+        return new Restricted(letters);
+    }
+
+    /**
+     * A view of the trie restricted to the words that could be formed on a board
+     * (see BoardLetters). Copying the part of the trie that passes the tests
+     * would mean walking the whole trie for every board, and on a large board
+     * almost every word passes. Instead, the tests are applied as the search
+     * asks for prefixes.
+     * <p>
+     * A string is a possible prefix if it passes the tests itself and the node it
+     * leads to has at least one word below it that passes them too. That word is
+     * searched for depth first, carrying the number of tiles left for each letter
+     * and the index of the last letter, and the search stops at the first one.
+     * Only one path leads to each node, so the answer for a node never changes
+     * and is remembered; each node is examined at most once per board.
+     * <p>
+     * One question could still walk a large subtree with no words that pass,
+     * which would stall a search with a deadline. So each question examines at
+     * most STEP_LIMIT nodes; after that the answer is "possible". That is always
+     * safe: the search just asks again about the children, and at worst a little
+     * less is pruned. contains is still exact.
+     * <p>
+     * Words with fewer than three letters are never reported, so they don't
+     * count as words of the view.
+     */
+    private class Restricted implements WordCollection {
+        private static final int STEP_LIMIT = 256;
+
+        private final @NotNull BoardLetters letters;
+        private final @NotNull HashMap<Trie, Boolean> viable;
+        private int size;
+        private int steps;
+
+        Restricted (@NotNull BoardLetters letters) {
+            this.letters = letters;
+            this.viable = new HashMap<>();
+            this.size = -1;
+        }
+
+        public boolean contains (@NotNull String w) {
+            Trie node = find(w);
+            return node != null && node.endsHere && w.length() > 2 && isViable(node, w);
+        }
+
+        public boolean possiblePrefix (@NotNull String w) {
+            Trie node = find(w);
+            return node != null && isViable(node, w);
+        }
+
+        /**
+         * Returns true if w passes the tests and some word below its node (or the
+         * node itself) passes them too. The node is the one find(w) returns.
+         */
+        private boolean isViable (@NotNull Trie node, @NotNull String w) {
+            Boolean known = viable.get(node);
+            if (known != null) {
+                return known;
+            }
+
+            int[] left = letters.lettersLeft(w);
+            if (left == null) {
+                viable.put(node, false);
+                return false;
+            }
+            int last = w.isEmpty() ? -1 : letters.indexOf(w.charAt(w.length() - 1));
+            steps = STEP_LIMIT;
+            return isViable(node, left, last, w.length());
+        }
+
+        /**
+         * Returns true if some word below the node (or the node itself) passes the
+         * tests, given the letters left and the last letter of the path to it,
+         * or if the walk has used up its steps.
+         */
+        private boolean isViable (@NotNull Trie node, int @NotNull [] left, int last, int depth) {
+            Boolean known = viable.get(node);
+            if (known != null) {
+                return known;
+            }
+            if (steps-- <= 0) {
+                return true;
+            }
+
+            boolean found = node.endsHere && depth > 2;
+            for (Map.Entry<Character,Trie> entry : node.children.entrySet()) {
+                if (found) {
+                    break;
+                }
+                int k = letters.indexOf(entry.getKey());
+                if (k >= 0 && left[k] > 0 && (last < 0 || letters.adjacent(last, k))) {
+                    left[k]--;
+                    found = isViable(entry.getValue(), left, k, depth + 1);
+                    left[k]++;
+                }
+            }
+
+            viable.put(node, found);
+            return found;
+        }
+
+        /**
+         * Counts the words below the node that pass the tests. Unlike isViable,
+         * this walks every such word, which on a large board is nearly the whole
+         * trie (about 30 ms for the common words on a 30x30 board, longer than
+         * solving it). It is only used for the size of the view, which is
+         * computed once and remembered.
+         */
+        private int count (@NotNull Trie node, int @NotNull [] left, int last, int depth) {
+            int n = node.endsHere && depth > 2 ? 1 : 0;
+            for (Map.Entry<Character,Trie> entry : node.children.entrySet()) {
+                int k = letters.indexOf(entry.getKey());
+                if (k >= 0 && left[k] > 0 && (last < 0 || letters.adjacent(last, k))) {
+                    left[k]--;
+                    n += count(entry.getValue(), left, k, depth + 1);
+                    left[k]++;
+                }
+            }
+            return n;
+        }
+
+        public int size () {
+            if (size < 0) {
+                size = count(Trie.this, letters.counts(), -1, 0);
+            }
+            return size;
+        }
+
+        /**
+         * A view belongs to one board, so restricting it to another board starts
+         * again from the whole trie.
+         */
+        public @NotNull WordCollection restrictTo (@NotNull BoardLetters other) {
+            return Trie.this.restrictTo(other);
+        }
+    }
+
     public String toString () {
         return children.toString();
     }
@@ -3,5 +3,6 @@ import org.jetbrains.annotations.NotNull;
 public interface WordCollection {
     boolean contains (@NotNull String w);
     boolean possiblePrefix (@NotNull String w);
+    int size ();
+    @NotNull WordCollection restrictTo (@NotNull BoardLetters letters);
 }
-
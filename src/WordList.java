@@ -63,4 +63,17 @@ public class WordList implements WordCollection {
         }
         return false;
     }
+
+    public int size () {
+        return words.size();
+    }
+
+    /**
+     * Returns a new word list with only the words that could be formed on the
+     * board. The result is still a list, so it is just as inefficient per lookup
+     * but has fewer words to scan.
+     */
+    public @NotNull WordList restrictTo (@NotNull BoardLetters letters) {
+        return new WordList(words.stream().filter(letters::feasible).toList());
+    }
 }
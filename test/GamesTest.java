@@ -4,10 +4,21 @@ import org.junit.jupiter.api.Test;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Collection;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class GamesTest {
     private static Trie dict;
+    private static WordList list;
+    private static List<String> lines;
 
     long timeIt (@NotNull Runnable r) {
         long t0 = System.currentTimeMillis();
@@ -19,12 +30,16 @@ public class GamesTest {
     void report (@NotNull Boggle game, long t) {
         @NotNull HashSet<String> ws = game.getFoundWords();
         System.out.printf("Found %d words in %d ms!%n", ws.size(), t);
+        System.out.printf("Dictionary: %s%n", game.pruneDictionary());
         for (String w : ws) System.out.println(w);
     }
 
     @BeforeAll
     static void setup () throws IOException {
-        dict = new Trie(new File("Boggle/commonwords.txt"));
+        @NotNull File file = new File("Boggle/commonwords.txt");
+        dict = new Trie(file);
+        list = new WordList(file);
+        lines = Files.readAllLines(file.toPath());
     }
 
     @Test
@@ -42,4 +57,88 @@ public class GamesTest {
         report(game, timeIt(game::findWords));
     }
 
+    char[] @NotNull [] randomChars (@NotNull Random rnd, int size) {
+        char[] @NotNull [] chars = new char[size][size];
+        for (int r = 0; r < size; r++)
+            for (int c = 0; c < size; c++)
+                chars[r][c] = (char) (rnd.nextInt(26) + 'A');
+        return chars;
+    }
+
+    void assertPrunedMatchesFull (char[] @NotNull [] chars, @NotNull WordCollection words, int dictSize) {
+        @NotNull Boggle full = new Boggle(chars, words);
+        full.setPruning(false);
+        full.findWords();
+
+        @NotNull Boggle pruned = new Boggle(chars, words);
+        pruned.findWords();
+
+        @NotNull PrunedWordCollection view = pruned.pruneDictionary();
+        assertEquals(dictSize, view.getKeptCount() + view.getPrunedCount());
+        assertEquals(full.getFoundWords(), pruned.getFoundWords());
+    }
+
+    @Test
+    void prunedMatchesFull() {
+        @NotNull Random rnd = new Random(2024);
+        for (int i = 0; i < 10; i++) {
+            // the trie stores a repeated word only once
+            assertPrunedMatchesFull(randomChars(rnd, 4 + i % 4), dict, new HashSet<>(lines).size());
+        }
+        for (int i = 0; i < 3; i++) {
+            // without pruning the word list is slow, so its boards stay small
+            assertPrunedMatchesFull(randomChars(rnd, 3), list, lines.size());
+        }
+    }
+
+    @Test
+    void boundedSolve() {
+        char[] @NotNull [] chars = {
+                {'E', 'I', 'L', 'A'},
+                {'T', 'P', 'A', 'G'},
+                {'R', 'E', 'T', 'O'},
+                {'H', 'T', 'A', 'Y'}
+        };
+
+        @NotNull Boggle game = new Boggle(chars, dict);
+        assertTrue(game.findWords(SolveLimits.unbounded()));
+        @NotNull HashSet<String> all = new HashSet<>(game.getFoundWords());
+        long nodes = game.getNodesVisited();
+
+        assertTrue(game.findWords(SolveLimits.unbounded().withIterativeDeepening(true)));
+        assertEquals(all, game.getFoundWords());
+
+        assertFalse(game.findWords(SolveLimits.nodes(nodes / 3)));
+        assertTrue(all.containsAll(game.getFoundWords()));
+        assertFalse(game.findWords(SolveLimits.nodes(nodes / 3).withIterativeDeepening(true)));
+        assertShortestFirst(all, game.getFoundWords());
+
+        assertFalse(game.findWords(SolveLimits.deadline(0)));
+        assertShortestFirst(all, game.getFoundWords());
+        assertTrue(game.findWords(SolveLimits.unbounded()));
+        assertEquals(all, game.getFoundWords());
+
+        @NotNull HashSet<String> short3 = new HashSet<>();
+        for (String w : all) if (w.length() <= 3) short3.add(w);
+        assertTrue(game.findWords(SolveLimits.maxLength(3)));
+        assertEquals(short3, game.getFoundWords());
+    }
+
+    /**
+     * Checks the words found by an incomplete solve with iterative deepening:
+     * they are found in order of length, and every pass before the one that ran
+     * out of budget found all of its words.
+     */
+    private static void assertShortestFirst(@NotNull Set<String> all, @NotNull Collection<String> found) {
+        assertTrue(all.containsAll(found));
+        int longest = 0;
+        for (String w : found) {
+            assertTrue(w.length() >= longest, "found " + w + " after a word of length " + longest);
+            longest = w.length();
+        }
+        for (String w : all) {
+            if (w.length() < longest) assertTrue(found.contains(w), "missing " + w);
+        }
+    }
+
 }